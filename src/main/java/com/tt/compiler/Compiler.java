@@ -1,13 +1,43 @@
 package com.tt.compiler;
 
+import com.tt.compiler.component.IncrementalLexer;
+import com.tt.compiler.component.LexicalAnalyzer;
+import com.tt.compiler.component.SourceWatcher;
+
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Origami
  * @date 2/22/2023 9:04 AM
  */
 public class Compiler {
+    // 一批文件事件结束后需要安静的时间
+    public static final long DebounceMillis = 200;
+
     public List<String> lexicalAnalyzer() {
         return null;
     }
+
+    /**
+     * 监听目录下的源文件，每当有文件变化时只重新分析真正改变的文件，并输出本轮的统计，不会主动返回
+     *
+     * @param root 源码根目录
+     * @throws IOException          IOException
+     * @throws InterruptedException 被中断时退出
+     * @author agent
+     * @date 10/19/2026
+     */
+    public void watch(Path root) throws IOException, InterruptedException {
+        var lexer = new IncrementalLexer(new LexicalAnalyzer());
+        try (var watcher = new SourceWatcher(root, lexer, root.getFileSystem().newWatchService(), DebounceMillis)) {
+            System.out.println("[watch] initial: " + watcher.start());
+            while (!Thread.currentThread().isInterrupted()) {
+                watcher.poll(Long.MAX_VALUE, TimeUnit.MILLISECONDS)
+                        .ifPresent(summary -> System.out.println("[watch] " + summary));
+            }
+        }
+    }
 }
@@ -1,19 +1,73 @@
 package com.tt.compiler;
 
 import com.google.common.io.Resources;
+import com.tt.compiler.backend.BytecodeBackend;
 import com.tt.compiler.component.LexicalAnalyzer;
+import com.tt.compiler.index.IdentifierIndex;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 /**
+ * 用法见 {@link #Usage}
+ *
  * @author Origami
  * @date 2/22/2023 8:46 AM
  */
 public class Main {
-    public static void main(String[] args) throws IOException {
-        URL resource = Resources.getResource("examples/Main.java");
-        new LexicalAnalyzer().parse(new File(resource.getFile())).forEach(System.out::println);
+    public static final String Usage = """
+            usage:
+                Main                          print tokens of the bundled example
+                Main [file]                   print tokens of file
+                Main --run file [args...]     compile file and run it as a hidden class
+                Main --emit dir file          compile file and write the .class under dir
+                Main --watch dir              watch sources under dir and re-lex changed files
+                Main --index dir index        build an identifier index of sources under dir
+                Main --find index name        find all occurrences of an identifier
+            """;
+
+    public static void main(String[] args) throws IOException, ReflectiveOperationException, InterruptedException {
+        if (args.length == 0) {
+            URL resource = Resources.getResource("examples/Main.java");
+            new LexicalAnalyzer().parse(new File(resource.getFile())).forEach(System.out::println);
+            return;
+        }
+
+        int required = switch (args[0]) {
+            case "--run", "--watch" -> 2;
+            case "--emit", "--index", "--find" -> 3;
+            default -> 1;
+        };
+        if (args.length < required) {
+            System.err.print(Usage);
+            System.exit(1);
+        }
+
+        switch (args[0]) {
+            case "--run" -> {
+                var tokens = new LexicalAnalyzer().parse(new File(args[1]));
+                new BytecodeBackend().run(tokens, Arrays.copyOfRange(args, 2, args.length));
+            }
+            case "--emit" -> {
+                var tokens = new LexicalAnalyzer().parse(new File(args[2]));
+                System.out.println(new BytecodeBackend().emit(tokens, Path.of(args[1])));
+            }
+            case "--watch" -> new Compiler().watch(Path.of(args[1]));
+            case "--index" -> IdentifierIndex.build(Path.of(args[1]), Path.of(args[2]),
+                    Runtime.getRuntime().availableProcessors());
+            case "--find" -> {
+                var index = IdentifierIndex.open(Path.of(args[1]));
+                index.find(args[2]).forEach(System.out::println);
+                if (!index.failedFiles().isEmpty()) {
+                    System.err.println("results are incomplete, " + index.failedFiles().size()
+                            + " file(s) could not be indexed:");
+                    index.failedFiles().forEach(file -> System.err.println("    " + file));
+                }
+            }
+            default -> new LexicalAnalyzer().parse(new File(args[0])).forEach(System.out::println);
+        }
     }
 }
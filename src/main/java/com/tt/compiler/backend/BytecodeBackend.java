@@ -0,0 +1,76 @@
+package com.tt.compiler.backend;
+
+import com.tt.compiler.Token;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 字节码后端：把 Token 编译成 class 文件，或者以隐藏类的方式直接加载运行
+ *
+ * @author agent
+ * @date 10/19/2026 12:41 PM
+ */
+public class BytecodeBackend {
+    /**
+     * 编译并定义为隐藏类。隐藏类必须与 Lookup 所在的类同包，因此类名会被放到当前包下
+     *
+     * @param tokens 词法分析结果
+     * @return 拥有隐藏类完全访问权限的 Lookup
+     * @throws IllegalAccessException IllegalAccessException
+     * @author agent
+     * @date 10/19/2026
+     */
+    public MethodHandles.Lookup define(List<Token> tokens) throws IllegalAccessException {
+        var compiler = new BytecodeCompiler(tokens);
+        String internalName = BytecodeBackend.class.getPackageName().replace('.', '/') + "/" + compiler.className();
+        return MethodHandles.lookup().defineHiddenClass(compiler.compile(internalName), true);
+    }
+
+    /**
+     * 编译、加载并执行 main 方法
+     *
+     * @param tokens 词法分析结果
+     * @param args   传给 main 的参数
+     * @throws ReflectiveOperationException 找不到 main 方法或无法访问
+     * @author agent
+     * @date 10/19/2026
+     */
+    public void run(List<Token> tokens, String... args) throws ReflectiveOperationException {
+        var lookup = define(tokens);
+        var main = lookup.findStatic(lookup.lookupClass(), "main", MethodType.methodType(void.class, String[].class));
+        try {
+            main.invokeExact(args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    /**
+     * 编译并按包名写出 .class 文件
+     *
+     * @param tokens    词法分析结果
+     * @param outputDir 输出根目录
+     * @return 写出的 class 文件路径
+     * @throws IOException IOException
+     * @author agent
+     * @date 10/19/2026
+     */
+    public Path emit(List<Token> tokens, Path outputDir) throws IOException {
+        var compiler = new BytecodeCompiler(tokens);
+        String internalName = compiler.packageName().isEmpty()
+                ? compiler.className()
+                : compiler.packageName().replace('.', '/') + "/" + compiler.className();
+        Path classFile = outputDir.toAbsolutePath().resolve(internalName + ".class");
+        Files.createDirectories(classFile.getParent());
+        Files.write(classFile, compiler.compile(internalName));
+        return classFile;
+    }
+}
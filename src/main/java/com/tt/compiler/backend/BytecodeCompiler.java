@@ -0,0 +1,769 @@
+package com.tt.compiler.backend;
+
+import com.tt.compiler.Token;
+import com.tt.compiler.constants.SpecifyCode;
+import com.tt.compiler.exception.IllegalSyntaxException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.tt.compiler.constants.Opcodes.*;
+
+/**
+ * 把词法分析得到的 Token 直接翻译成字节码（单遍，不构建语法树）
+ * <p>
+ * 支持的子集：一个类，类中只有静态方法；方法参数和返回值为 int（main 方法除外）；
+ * 语句包括 int 变量声明、赋值与复合赋值、++/--、if/else、while、do/while、for、break、continue、return、
+ * 方法调用以及 System.out.print/println；表达式支持 int 的四则运算与取模，以及与字符串字面量的拼接
+ *
+ * @author agent
+ * @date 10/19/2026 12:41 PM
+ */
+public class BytecodeCompiler {
+    private static final String StringClass = "java/lang/String";
+    private static final String StringDescriptor = "Ljava/lang/String;";
+    private static final String MainDescriptor = "([Ljava/lang/String;)V";
+
+    private final List<Token> tokens;
+    private final Map<String, MethodSignature> methods = new LinkedHashMap<>();
+    private String packageName = "";
+    private String className;
+    private int pos;
+
+    // 以下为编译单个方法时的状态
+    private String internalName;
+    private MethodWriter writer;
+    private MethodSignature method;
+    private Map<String, Integer> locals;
+    private int nextSlot;
+    private final Deque<Label[]> loops = new ArrayDeque<>();
+
+    private enum Type {Int, String, Void}
+
+    private record MethodSignature(String name, boolean isPublic, Type returnType, String descriptor,
+                                   List<String> intParams, int parameterCount, int bodyStart) {
+    }
+
+    public BytecodeCompiler(List<Token> tokens) {
+        this.tokens = tokens;
+        parseDeclarations();
+    }
+
+    /**
+     * @return 源码中声明的包名，没有声明时为空字符串
+     */
+    public String packageName() {
+        return packageName;
+    }
+
+    /**
+     * @return 源码中声明的类名
+     */
+    public String className() {
+        return className;
+    }
+
+    /**
+     * 生成 class 文件
+     *
+     * @param internalName 生成类的内部名称，可以与源码中声明的不同
+     * @return class 文件内容
+     */
+    public byte[] compile(String internalName) {
+        this.internalName = internalName;
+        var classFile = new ClassFileWriter(internalName);
+        for (var signature : methods.values()) {
+            int access = ACC_STATIC | (signature.isPublic() ? ACC_PUBLIC : 0);
+            compileMethod(signature, classFile.addMethod(access, signature.name(), signature.descriptor()));
+        }
+        return classFile.toByteArray();
+    }
+
+    // ---------------------------------------------------------------- 声明
+
+    private void parseDeclarations() {
+        pos = 0;
+        if (accept(Token.Package)) {
+            packageName = qualifiedName();
+            expect(Token.Semicolon);
+        }
+        while (accept(Token.Import)) {
+            while (!accept(Token.Semicolon)) {
+                next();
+            }
+        }
+        skipModifiers();
+        expect(Token.Class);
+        className = identifier();
+        expect(Token.BigLeftBracket);
+
+        while (!accept(Token.BigRightBracket)) {
+            if (accept(Token.Semicolon)) {
+                continue;
+            }
+            var signature = parseMethodHeader();
+            if (methods.putIfAbsent(signature.name(), signature) != null) {
+                throw new IllegalSyntaxException("method " + signature.name() + " is already defined");
+            }
+            skipBlock();
+        }
+    }
+
+    private MethodSignature parseMethodHeader() {
+        boolean isPublic = false;
+        boolean isStatic = false;
+        while (true) {
+            if (accept(Token.Public)) {
+                isPublic = true;
+            } else if (accept(Token.Static)) {
+                isStatic = true;
+            } else if (!accept(Token.Private) && !accept(Token.Protected) && !accept(Token.Final)) {
+                break;
+            }
+        }
+
+        Type returnType;
+        if (accept(Token.Void)) {
+            returnType = Type.Void;
+        } else if (accept(Token.Int)) {
+            returnType = Type.Int;
+        } else {
+            throw unexpected("method return type");
+        }
+        String name = identifier();
+        if (!isStatic) {
+            throw new IllegalSyntaxException("only static methods are supported: " + name);
+        }
+
+        expect(Token.LeftBracket);
+        var descriptor = new StringBuilder("(");
+        var intParams = new ArrayList<String>();
+        int parameterCount = 0;
+        while (!accept(Token.RightBracket)) {
+            if (parameterCount > 0) {
+                expect(Token.Comma);
+            }
+            if (accept(Token.Int)) {
+                descriptor.append('I');
+                intParams.add(identifier());
+            } else if (peek().equals(new Token(SpecifyCode.Identifier, "String"))) {
+                next();
+                expect(Token.MediumLeftBracket);
+                expect(Token.MediumRightBracket);
+                identifier();
+                descriptor.append('[').append(StringDescriptor);
+                // String[] 参数不能在方法体中使用，只占一个槽位
+                intParams.add(null);
+            } else {
+                throw unexpected("parameter type");
+            }
+            parameterCount++;
+        }
+        descriptor.append(')').append(returnType == Type.Int ? "I" : "V");
+
+        if (name.equals("main") && !descriptor.toString().equals(MainDescriptor)) {
+            throw new IllegalSyntaxException("main method must be declared as main(String[] args)");
+        }
+        return new MethodSignature(name, isPublic, returnType, descriptor.toString(),
+                intParams, parameterCount, pos);
+    }
+
+    private void skipModifiers() {
+        while (accept(Token.Public) || accept(Token.Private) || accept(Token.Protected)
+                || accept(Token.Static) || accept(Token.Final) || accept(Token.Abstract)) {
+            // skip
+        }
+    }
+
+    private void skipBlock() {
+        expect(Token.BigLeftBracket);
+        int depth = 1;
+        while (depth > 0) {
+            var token = next();
+            if (token.equals(Token.BigLeftBracket)) {
+                depth++;
+            } else if (token.equals(Token.BigRightBracket)) {
+                depth--;
+            }
+        }
+    }
+
+    private String qualifiedName() {
+        var name = new StringBuilder(identifier());
+        while (accept(Token.Dot)) {
+            name.append('.').append(identifier());
+        }
+        return name.toString();
+    }
+
+    // ---------------------------------------------------------------- 方法与语句
+
+    private void compileMethod(MethodSignature signature, MethodWriter methodWriter) {
+        method = signature;
+        writer = methodWriter;
+        locals = new HashMap<>();
+        nextSlot = signature.parameterCount();
+        loops.clear();
+        for (int slot = 0; slot < signature.intParams().size(); slot++) {
+            var param = signature.intParams().get(slot);
+            if (param != null) {
+                declare(param, slot);
+            }
+        }
+
+        pos = signature.bodyStart();
+        expect(Token.BigLeftBracket);
+        block();
+
+        // 对于 void 方法补上 return；对于 int 方法，末尾能执行到说明缺少 return
+        if (signature.returnType() == Type.Void) {
+            writer.op(RETURN, 0);
+        } else {
+            writer.newObject("java/lang/IllegalStateException");
+            writer.op(DUP, 1);
+            writer.pushString("missing return statement in method " + signature.name());
+            writer.invoke(INVOKESPECIAL, "java/lang/IllegalStateException", "<init>", "(" + StringDescriptor + ")V");
+            writer.op(ATHROW, -1);
+        }
+    }
+
+    /**
+     * 编译 { 之后的语句，直到匹配的 }
+     */
+    private void block() {
+        var savedLocals = new HashMap<>(locals);
+        int savedSlot = nextSlot;
+        while (!accept(Token.BigRightBracket)) {
+            statement();
+        }
+        locals = savedLocals;
+        nextSlot = savedSlot;
+    }
+
+    private void statement() {
+        if (accept(Token.BigLeftBracket)) {
+            block();
+        } else if (accept(Token.Semicolon)) {
+            // 空语句，词法分析会在 for (...) { 之后补上一个分号
+        } else if (accept(Token.Int)) {
+            declaration();
+            expect(Token.Semicolon);
+        } else if (accept(Token.If)) {
+            ifStatement();
+        } else if (accept(Token.While)) {
+            whileStatement();
+        } else if (accept(Token.Do)) {
+            doWhileStatement();
+        } else if (accept(Token.For)) {
+            forStatement();
+        } else if (accept(Token.Break)) {
+            writer.jump(GOTO, currentLoop("break")[0]);
+            expect(Token.Semicolon);
+        } else if (accept(Token.Continue)) {
+            writer.jump(GOTO, currentLoop("continue")[1]);
+            expect(Token.Semicolon);
+        } else if (accept(Token.Return)) {
+            returnStatement();
+        } else {
+            expressionStatement();
+            expect(Token.Semicolon);
+        }
+    }
+
+    private void declaration() {
+        do {
+            String name = identifier();
+            int slot = nextSlot++;
+            if (accept(Token.Equal)) {
+                requireInt(expression(), name);
+            } else {
+                writer.pushInt(0);
+            }
+            writer.store(slot);
+            declare(name, slot);
+        } while (accept(Token.Comma));
+    }
+
+    private void declare(String name, int slot) {
+        if (locals.putIfAbsent(name, slot) != null) {
+            throw new IllegalSyntaxException("variable " + name + " is already defined in method " + method.name());
+        }
+        writer.useLocal(slot);
+    }
+
+    private void ifStatement() {
+        var otherwise = writer.newLabel();
+        expect(Token.LeftBracket);
+        condition(otherwise);
+        expect(Token.RightBracket);
+        statement();
+        if (accept(Token.Else)) {
+            var end = writer.newLabel();
+            writer.jump(GOTO, end);
+            writer.mark(otherwise);
+            statement();
+            writer.mark(end);
+        } else {
+            writer.mark(otherwise);
+        }
+    }
+
+    private void whileStatement() {
+        var start = writer.newLabel();
+        var end = writer.newLabel();
+        writer.mark(start);
+        expect(Token.LeftBracket);
+        condition(end);
+        expect(Token.RightBracket);
+        loopBody(end, start);
+        writer.jump(GOTO, start);
+        writer.mark(end);
+    }
+
+    private void doWhileStatement() {
+        var start = writer.newLabel();
+        var check = writer.newLabel();
+        var end = writer.newLabel();
+        writer.mark(start);
+        loopBody(end, check);
+        expect(Token.While);
+        writer.mark(check);
+        expect(Token.LeftBracket);
+        condition(end);
+        expect(Token.RightBracket);
+        expect(Token.Semicolon);
+        writer.jump(GOTO, start);
+        writer.mark(end);
+    }
+
+    /**
+     * for 的更新语句写在循环体之前，但要在循环体之后执行，因此先跳过，编译完循环体再回来编译
+     */
+    private void forStatement() {
+        var savedLocals = new HashMap<>(locals);
+        int savedSlot = nextSlot;
+        expect(Token.LeftBracket);
+        if (!accept(Token.Semicolon)) {
+            if (accept(Token.Int)) {
+                declaration();
+            } else {
+                expressionStatements();
+            }
+            expect(Token.Semicolon);
+        }
+
+        var check = writer.newLabel();
+        var update = writer.newLabel();
+        var end = writer.newLabel();
+        writer.mark(check);
+        if (!peek().equals(Token.Semicolon)) {
+            condition(end);
+        }
+        expect(Token.Semicolon);
+
+        int updateStart = pos;
+        int depth = 0;
+        while (depth > 0 || !peek().equals(Token.RightBracket)) {
+            var token = next();
+            if (token.equals(Token.LeftBracket)) {
+                depth++;
+            } else if (token.equals(Token.RightBracket)) {
+                depth--;
+            }
+        }
+        next();
+
+        loopBody(end, update);
+
+        writer.mark(update);
+        int bodyEnd = pos;
+        pos = updateStart;
+        if (!peek().equals(Token.RightBracket)) {
+            expressionStatements();
+        }
+        expect(Token.RightBracket);
+        pos = bodyEnd;
+        writer.jump(GOTO, check);
+        writer.mark(end);
+
+        locals = savedLocals;
+        nextSlot = savedSlot;
+    }
+
+    private void loopBody(Label breakTarget, Label continueTarget) {
+        loops.push(new Label[]{breakTarget, continueTarget});
+        statement();
+        loops.pop();
+    }
+
+    private Label[] currentLoop(String keyword) {
+        if (loops.isEmpty()) {
+            throw new IllegalSyntaxException(keyword + " outside of loop");
+        }
+        return loops.peek();
+    }
+
+    private void returnStatement() {
+        if (method.returnType() == Type.Void) {
+            expect(Token.Semicolon);
+            writer.op(RETURN, 0);
+        } else {
+            requireInt(expression(), "return value");
+            expect(Token.Semicolon);
+            writer.op(IRETURN, -1);
+        }
+    }
+
+    private void expressionStatements() {
+        do {
+            expressionStatement();
+        } while (accept(Token.Comma));
+    }
+
+    private void expressionStatement() {
+        if (accept(Token.PlusAndPlus)) {
+            writer.increment(local(identifier()), 1);
+            return;
+        }
+        if (accept(Token.MinusAndMinus)) {
+            writer.increment(local(identifier()), -1);
+            return;
+        }
+
+        String name = identifier();
+        if (peek().equals(Token.Dot)) {
+            printStatement(name);
+            return;
+        }
+        if (accept(Token.LeftBracket)) {
+            if (call(name) == Type.Int) {
+                writer.op(POP, -1);
+            }
+            return;
+        }
+
+        int slot = local(name);
+        var operator = next();
+        if (operator.equals(Token.Equal)) {
+            requireInt(expression(), name);
+            writer.store(slot);
+        } else if (operator.equals(Token.PlusAndPlus)) {
+            writer.increment(slot, 1);
+        } else if (operator.equals(Token.MinusAndMinus)) {
+            writer.increment(slot, -1);
+        } else if (operator.equals(Token.PlusAndEqual) && isSmallConstantOperand()) {
+            writer.increment(slot, Integer.parseInt(next().value()));
+        } else if (operator.equals(Token.MinusAndEqual) && isSmallConstantOperand()) {
+            writer.increment(slot, -Integer.parseInt(next().value()));
+        } else {
+            int opcode = compoundOpcode(operator);
+            writer.load(slot);
+            requireInt(expression(), name);
+            writer.op(opcode, -1);
+            writer.store(slot);
+        }
+    }
+
+    private static int compoundOpcode(Token operator) {
+        if (operator.equals(Token.PlusAndEqual)) {
+            return IADD;
+        } else if (operator.equals(Token.MinusAndEqual)) {
+            return ISUB;
+        } else if (operator.equals(Token.MultiplyAndEqual)) {
+            return IMUL;
+        } else if (operator.equals(Token.DivideAndEqual)) {
+            return IDIV;
+        } else if (operator.equals(Token.ModAndEqual)) {
+            return IREM;
+        }
+        throw new IllegalSyntaxException("not a statement: " + operator.value());
+    }
+
+    /**
+     * x += 1 这类右侧为小常量的复合赋值可以直接用 iinc
+     */
+    private boolean isSmallConstantOperand() {
+        var operand = peek();
+        if (operand.specifyCode() != SpecifyCode.Literal || !Character.isDigit(operand.value().charAt(0))
+                || operand.value().length() > 3 || Integer.parseInt(operand.value()) > Byte.MAX_VALUE) {
+            return false;
+        }
+        var after = peek(1);
+        return after.equals(Token.Semicolon) || after.equals(Token.RightBracket) || after.equals(Token.Comma);
+    }
+
+    private void printStatement(String receiver) {
+        String target = receiver + "." + qualifiedNameAfterDot();
+        if (!target.equals("System.out.println") && !target.equals("System.out.print")) {
+            throw new IllegalSyntaxException("unsupported method call: " + target);
+        }
+        String methodName = target.substring(target.lastIndexOf('.') + 1);
+
+        writer.getStatic("java/lang/System", "out", "Ljava/io/PrintStream;");
+        expect(Token.LeftBracket);
+        String descriptor;
+        if (methodName.equals("println") && accept(Token.RightBracket)) {
+            descriptor = "()V";
+        } else {
+            var type = expression();
+            expect(Token.RightBracket);
+            descriptor = type == Type.Int ? "(I)V" : "(" + StringDescriptor + ")V";
+        }
+        writer.invoke(INVOKEVIRTUAL, "java/io/PrintStream", methodName, descriptor);
+    }
+
+    private String qualifiedNameAfterDot() {
+        var name = new StringBuilder();
+        while (accept(Token.Dot)) {
+            if (!name.isEmpty()) {
+                name.append('.');
+            }
+            name.append(identifier());
+        }
+        return name.toString();
+    }
+
+    private Type call(String name) {
+        var callee = methods.get(name);
+        if (callee == null) {
+            throw new IllegalSyntaxException("cannot find symbol: method " + name);
+        }
+        if (callee.intParams().contains(null)) {
+            throw new IllegalSyntaxException("method " + name + " can't be called from source");
+        }
+        int count = 0;
+        while (!accept(Token.RightBracket)) {
+            if (count > 0) {
+                expect(Token.Comma);
+            }
+            requireInt(expression(), "argument of " + name);
+            count++;
+        }
+        if (count != callee.parameterCount()) {
+            throw new IllegalSyntaxException(String.format(
+                    "method %s requires %d arguments but found %d", name, callee.parameterCount(), count));
+        }
+        writer.invoke(INVOKESTATIC, internalName, name, callee.descriptor());
+        return callee.returnType();
+    }
+
+    // ---------------------------------------------------------------- 表达式
+
+    /**
+     * 编译条件表达式，条件不成立时跳转到 otherwise，成立时继续往下执行
+     */
+    private void condition(Label otherwise) {
+        if (accept(Token.True)) {
+            return;
+        }
+        if (accept(Token.False)) {
+            writer.jump(GOTO, otherwise);
+            return;
+        }
+        requireInt(expression(), "condition");
+        var operator = next();
+        int opcode;
+        if (operator.equals(Token.Less)) {
+            opcode = IF_ICMPGE;
+        } else if (operator.equals(Token.LessAndEqual)) {
+            opcode = IF_ICMPGT;
+        } else if (operator.equals(Token.Greater)) {
+            opcode = IF_ICMPLE;
+        } else if (operator.equals(Token.GreaterAndEqual)) {
+            opcode = IF_ICMPLT;
+        } else if (operator.equals(Token.EqualAndEqual)) {
+            opcode = IF_ICMPNE;
+        } else {
+            throw new IllegalSyntaxException("expected comparison operator but found: " + operator.value());
+        }
+        requireInt(expression(), "condition");
+        writer.jump(opcode, otherwise);
+    }
+
+    private Type expression() {
+        var left = term();
+        while (true) {
+            if (accept(Token.Plus)) {
+                var right = term();
+                if (left == Type.Int && right == Type.Int) {
+                    writer.op(IADD, -1);
+                } else {
+                    concat(left, right);
+                    left = Type.String;
+                }
+            } else if (accept(Token.Minus)) {
+                requireInt(left, "-");
+                requireInt(term(), "-");
+                writer.op(ISUB, -1);
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private void concat(Type left, Type right) {
+        if (right == Type.Int) {
+            writer.invoke(INVOKESTATIC, StringClass, "valueOf", "(I)" + StringDescriptor);
+        }
+        if (left == Type.Int) {
+            writer.op(SWAP, 0);
+            writer.invoke(INVOKESTATIC, StringClass, "valueOf", "(I)" + StringDescriptor);
+            writer.op(SWAP, 0);
+        }
+        writer.invoke(INVOKEVIRTUAL, StringClass, "concat", "(" + StringDescriptor + ")" + StringDescriptor);
+    }
+
+    private Type term() {
+        var left = unary();
+        while (true) {
+            int opcode;
+            if (accept(Token.Multiply)) {
+                opcode = IMUL;
+            } else if (accept(Token.Divide)) {
+                opcode = IDIV;
+            } else if (accept(Token.Mod)) {
+                opcode = IREM;
+            } else {
+                return left;
+            }
+            requireInt(left, "arithmetic");
+            requireInt(unary(), "arithmetic");
+            writer.op(opcode, -1);
+        }
+    }
+
+    private Type unary() {
+        if (!accept(Token.Minus)) {
+            return primary();
+        }
+        var operand = peek();
+        if (operand.specifyCode() == SpecifyCode.Literal && Character.isDigit(operand.value().charAt(0))) {
+            next();
+            writer.pushInt(parseInt("-" + operand.value()));
+            return Type.Int;
+        }
+        requireInt(unary(), "-");
+        writer.op(INEG, 0);
+        return Type.Int;
+    }
+
+    private Type primary() {
+        var token = next();
+        if (token.equals(Token.LeftBracket)) {
+            var type = expression();
+            expect(Token.RightBracket);
+            return type;
+        }
+        if (token.specifyCode() == SpecifyCode.Literal) {
+            String value = token.value();
+            if (value.startsWith("\"")) {
+                writer.pushString(unescape(value.substring(1, value.length() - 1)));
+                return Type.String;
+            }
+            writer.pushInt(parseInt(value));
+            return Type.Int;
+        }
+        if (token.specifyCode() == SpecifyCode.Identifier) {
+            if (accept(Token.LeftBracket)) {
+                var type = call(token.value());
+                requireInt(type, "call to " + token.value());
+                return type;
+            }
+            writer.load(local(token.value()));
+            return Type.Int;
+        }
+        throw new IllegalSyntaxException("illegal start of expression: " + token.value());
+    }
+
+    private static int parseInt(String literal) {
+        try {
+            return Integer.parseInt(literal);
+        } catch (NumberFormatException e) {
+            throw new IllegalSyntaxException("integer number too large: " + literal);
+        }
+    }
+
+    private static String unescape(String literal) {
+        var out = new StringBuilder(literal.length());
+        for (int i = 0; i < literal.length(); i++) {
+            char ch = literal.charAt(i);
+            if (ch == '\\' && i + 1 < literal.length()) {
+                char escaped = literal.charAt(++i);
+                out.append(switch (escaped) {
+                    case 'n' -> '\n';
+                    case 't' -> '\t';
+                    case 'r' -> '\r';
+                    default -> escaped;
+                });
+            } else {
+                out.append(ch);
+            }
+        }
+        return out.toString();
+    }
+
+    private int local(String name) {
+        var slot = locals.get(name);
+        if (slot == null) {
+            throw new IllegalSyntaxException("cannot find symbol: variable " + name);
+        }
+        return slot;
+    }
+
+    private static void requireInt(Type type, String context) {
+        if (type != Type.Int) {
+            throw new IllegalSyntaxException("incompatible types: expected int for " + context);
+        }
+    }
+
+    // ---------------------------------------------------------------- Token 读取
+
+    private Token peek() {
+        return peek(0);
+    }
+
+    private Token peek(int offset) {
+        if (pos + offset >= tokens.size()) {
+            throw new IllegalSyntaxException("reached end of file while parsing");
+        }
+        return tokens.get(pos + offset);
+    }
+
+    private Token next() {
+        var token = peek();
+        pos++;
+        return token;
+    }
+
+    private boolean accept(Token expected) {
+        if (pos < tokens.size() && tokens.get(pos).equals(expected)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(Token expected) {
+        if (!accept(expected)) {
+            throw unexpected("'" + expected.value() + "'");
+        }
+    }
+
+    private String identifier() {
+        var token = next();
+        if (token.specifyCode() != SpecifyCode.Identifier) {
+            throw new IllegalSyntaxException("expected identifier but found: " + token.value());
+        }
+        return token.value();
+    }
+
+    private IllegalSyntaxException unexpected(String expected) {
+        String found = pos < tokens.size() ? tokens.get(pos).value() : "end of file";
+        return new IllegalSyntaxException("expected " + expected + " but found: " + found);
+    }
+}
@@ -0,0 +1,77 @@
+package com.tt.compiler.backend;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.tt.compiler.constants.Opcodes.ACC_PUBLIC;
+import static com.tt.compiler.constants.Opcodes.ACC_SUPER;
+
+/**
+ * 最小化的 class 文件生成器，只支持没有字段、没有属性的类
+ * <p>
+ * 版本号固定为 49 (Java 5)，这样虚拟机会使用类型推导校验器，不需要为跳转生成 StackMapTable
+ *
+ * @author agent
+ * @date 10/19/2026 12:41 PM
+ */
+public class ClassFileWriter {
+    public static final int Magic = 0xCAFEBABE;
+    public static final int MajorVersion = 49;
+    public static final String ObjectClass = "java/lang/Object";
+
+    private final ConstantPool pool = new ConstantPool();
+    private final String internalName;
+    private final List<MethodWriter> methods = new ArrayList<>();
+
+    /**
+     * @param internalName 类的内部名称，例如 com/tt/compiler/Main
+     */
+    public ClassFileWriter(String internalName) {
+        this.internalName = internalName;
+    }
+
+    public String internalName() {
+        return internalName;
+    }
+
+    public MethodWriter addMethod(int access, String name, String descriptor) {
+        var method = new MethodWriter(pool, access, name, descriptor);
+        methods.add(method);
+        return method;
+    }
+
+    public byte[] toByteArray() {
+        try {
+            // 先写方法，方法中用到的常量都会进入常量池
+            var body = new ByteArrayOutputStream();
+            var bodyOut = new DataOutputStream(body);
+            bodyOut.writeShort(ACC_PUBLIC | ACC_SUPER);
+            bodyOut.writeShort(pool.classRef(internalName));
+            bodyOut.writeShort(pool.classRef(ObjectClass));
+            // interfaces、fields
+            bodyOut.writeShort(0);
+            bodyOut.writeShort(0);
+            bodyOut.writeShort(methods.size());
+            for (var method : methods) {
+                method.writeTo(bodyOut);
+            }
+            // attributes
+            bodyOut.writeShort(0);
+
+            var bytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(bytes);
+            out.writeInt(Magic);
+            out.writeShort(0);
+            out.writeShort(MajorVersion);
+            pool.writeTo(out);
+            body.writeTo(out);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.tt.compiler.backend;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.tt.compiler.constants.Opcodes.*;
+
+/**
+ * class 文件的常量池，相同的常量只会写入一次
+ *
+ * @author agent
+ * @date 10/19/2026 12:41 PM
+ */
+public class ConstantPool {
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    private final Map<String, Integer> indexes = new HashMap<>();
+    // 常量池下标从 1 开始
+    private int count = 1;
+
+    public int utf8(String value) {
+        return intern(CONSTANT_Utf8 + ":" + value, () -> out.writeUTF(value));
+    }
+
+    public int integer(int value) {
+        return intern(CONSTANT_Integer + ":" + value, () -> out.writeInt(value));
+    }
+
+    public int classRef(String internalName) {
+        int name = utf8(internalName);
+        return intern(CONSTANT_Class + ":" + internalName, () -> out.writeShort(name));
+    }
+
+    public int string(String value) {
+        int utf8 = utf8(value);
+        return intern(CONSTANT_String + ":" + value, () -> out.writeShort(utf8));
+    }
+
+    public int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_Fieldref, owner, name, descriptor);
+    }
+
+    public int methodRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_Methodref, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int nameAndType = nameAndType(name, descriptor);
+        return intern(tag + ":" + owner + "." + name + ":" + descriptor, () -> {
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        return intern(CONSTANT_NameAndType + ":" + name + ":" + descriptor, () -> {
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+    }
+
+    private int intern(String key, Body body) {
+        Integer index = indexes.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            out.writeByte(Integer.parseInt(key.substring(0, key.indexOf(':'))));
+            body.write();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        indexes.put(key, count);
+        return count++;
+    }
+
+    /**
+     * 写出 constant_pool_count 以及所有常量
+     *
+     * @param target 输出流
+     * @throws IOException IOException
+     */
+    public void writeTo(DataOutputStream target) throws IOException {
+        target.writeShort(count);
+        buffer.writeTo(target);
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void write() throws IOException;
+    }
+}
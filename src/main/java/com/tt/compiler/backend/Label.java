@@ -0,0 +1,16 @@
+package com.tt.compiler.backend;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 跳转目标，位置确定之前的跳转会被记录下来，等到方法结束时统一回填
+ *
+ * @author agent
+ * @date 10/19/2026 12:41 PM
+ */
+public class Label {
+    int position = -1;
+    // 每一项为 {跳转指令的位置, 需要回填偏移量的位置}
+    final List<int[]> fixups = new ArrayList<>();
+}
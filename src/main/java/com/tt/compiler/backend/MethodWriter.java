@@ -0,0 +1,207 @@
+package com.tt.compiler.backend;
+
+import com.tt.compiler.exception.IllegalSyntaxException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.tt.compiler.constants.Opcodes.*;
+
+/**
+ * 单个方法的字节码缓冲区，同时统计 max_stack 和 max_locals
+ *
+ * @author agent
+ * @date 10/19/2026 12:41 PM
+ */
+public class MethodWriter {
+    private final ConstantPool pool;
+    private final int access;
+    private final String name;
+    private final String descriptor;
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    private final List<Label> labels = new ArrayList<>();
+    private int stack;
+    private int maxStack;
+    private int maxLocals;
+
+    public MethodWriter(ConstantPool pool, int access, String name, String descriptor) {
+        this.pool = pool;
+        this.access = access;
+        this.name = name;
+        this.descriptor = descriptor;
+    }
+
+    public void useLocal(int slot) {
+        if (slot > 0xff) {
+            throw new IllegalSyntaxException("too many local variables in method " + name);
+        }
+        maxLocals = Math.max(maxLocals, slot + 1);
+    }
+
+    public void pushInt(int value) {
+        if (value >= -1 && value <= 5) {
+            op(ICONST_0 + value, 1);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            op(BIPUSH, 1);
+            code.write(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            op(SIPUSH, 1);
+            u2(value);
+        } else {
+            ldc(pool.integer(value));
+        }
+    }
+
+    public void pushString(String value) {
+        ldc(pool.string(value));
+    }
+
+    private void ldc(int index) {
+        if (index <= 0xff) {
+            op(LDC, 1);
+            code.write(index);
+        } else {
+            op(LDC_W, 1);
+            u2(index);
+        }
+    }
+
+    public void load(int slot) {
+        useLocal(slot);
+        op(ILOAD, 1);
+        code.write(slot);
+    }
+
+    public void store(int slot) {
+        useLocal(slot);
+        op(ISTORE, -1);
+        code.write(slot);
+    }
+
+    public void increment(int slot, int delta) {
+        useLocal(slot);
+        op(IINC, 0);
+        code.write(slot);
+        code.write(delta);
+    }
+
+    /**
+     * 写入一条没有操作数的指令
+     *
+     * @param opcode     指令
+     * @param stackDelta 执行后操作数栈深度的变化
+     */
+    public void op(int opcode, int stackDelta) {
+        code.write(opcode);
+        stack += stackDelta;
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    public void getStatic(String owner, String name, String descriptor) {
+        op(GETSTATIC, 1);
+        u2(pool.fieldRef(owner, name, descriptor));
+    }
+
+    public void invoke(int opcode, String owner, String name, String descriptor) {
+        int delta = returnSize(descriptor) - argumentSize(descriptor) - (opcode == INVOKESTATIC ? 0 : 1);
+        op(opcode, delta);
+        u2(pool.methodRef(owner, name, descriptor));
+    }
+
+    public void newObject(String internalName) {
+        op(NEW, 1);
+        u2(pool.classRef(internalName));
+    }
+
+    public Label newLabel() {
+        var label = new Label();
+        labels.add(label);
+        return label;
+    }
+
+    public void mark(Label label) {
+        label.position = code.size();
+    }
+
+    /**
+     * 写入跳转指令，偏移量在 {@link #writeTo} 时回填
+     */
+    public void jump(int opcode, Label target) {
+        int position = code.size();
+        int delta = switch (opcode) {
+            case GOTO -> 0;
+            case IFEQ, IFNE -> -1;
+            default -> -2;
+        };
+        op(opcode, delta);
+        target.fixups.add(new int[]{position, code.size()});
+        u2(0);
+    }
+
+    private void u2(int value) {
+        code.write(value >>> 8);
+        code.write(value);
+    }
+
+    /**
+     * 写出 method_info，包含唯一的 Code 属性
+     *
+     * @param out 输出流
+     * @throws IOException IOException
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        byte[] bytes = code.toByteArray();
+        for (var label : labels) {
+            for (var fixup : label.fixups) {
+                if (label.position < 0) {
+                    throw new IllegalStateException("unbound label in method " + name);
+                }
+                int offset = label.position - fixup[0];
+                if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                    throw new IllegalSyntaxException("method too large: " + name);
+                }
+                bytes[fixup[1]] = (byte) (offset >>> 8);
+                bytes[fixup[1] + 1] = (byte) offset;
+            }
+        }
+
+        out.writeShort(access);
+        out.writeShort(pool.utf8(name));
+        out.writeShort(pool.utf8(descriptor));
+        out.writeShort(1);
+        out.writeShort(pool.utf8("Code"));
+        // max_stack + max_locals + code_length + code + exception_table_length + attributes_count
+        out.writeInt(2 + 2 + 4 + bytes.length + 2 + 2);
+        out.writeShort(maxStack);
+        out.writeShort(Math.max(maxLocals, argumentSize(descriptor)));
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+
+    // 后端只会生成 int、引用和 void 类型，因此每个参数都只占一个槽位
+    private static int argumentSize(String descriptor) {
+        int size = 0;
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            char ch = descriptor.charAt(i);
+            while (ch == '[') {
+                ch = descriptor.charAt(++i);
+            }
+            if (ch == 'L') {
+                i = descriptor.indexOf(';', i);
+            }
+            size++;
+            i++;
+        }
+        return size;
+    }
+
+    private static int returnSize(String descriptor) {
+        return descriptor.endsWith(")V") ? 0 : 1;
+    }
+}
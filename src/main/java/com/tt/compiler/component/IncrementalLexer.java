@@ -0,0 +1,135 @@
+package com.tt.compiler.component;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.tt.compiler.Token;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 增量词法分析：缓存每个文件最近一次的 Token，只重新分析内容真正变化的文件
+ * <p>
+ * 先比较文件大小和修改时间，不同时再比较内容哈希，只有哈希也不同才重新分析
+ *
+ * @author agent
+ * @date 10/19/2026 12:42 PM
+ */
+public class IncrementalLexer {
+    private final LexicalAnalyzer lexicalAnalyzer;
+    private final Map<Path, FileState> files = new HashMap<>();
+
+    private record FileState(long size, long lastModified, HashCode hash, List<Token> tokens) {
+    }
+
+    /**
+     * 一次刷新的统计
+     *
+     * @param checked 检查过大小和修改时间的源文件数，不包括目录和已删除的路径
+     * @param lexed   重新分析的文件数
+     * @param removed 被删除的文件数
+     * @param failed  分析失败的文件数
+     * @param tokens  本次产生的 Token 数
+     * @param millis  耗时
+     */
+    public record Summary(int checked, int lexed, int removed, int failed, long tokens, long millis) {
+        @Override
+        public String toString() {
+            return String.format("%d file(s) checked, %d lexed, %d removed, %d failed, %d tokens, %d ms",
+                    checked, lexed, removed, failed, tokens, millis);
+        }
+    }
+
+    public IncrementalLexer(LexicalAnalyzer lexicalAnalyzer) {
+        this.lexicalAnalyzer = lexicalAnalyzer;
+    }
+
+    /**
+     * 刷新给定的文件，不存在的文件（或目录）会从缓存中移除
+     *
+     * @param paths 可能发生变化的路径
+     * @return 本次刷新的统计
+     * @author agent
+     * @date 10/19/2026
+     */
+    public Summary refresh(Collection<Path> paths) {
+        long start = System.nanoTime();
+        int checked = 0;
+        int lexed = 0;
+        int removed = 0;
+        int failed = 0;
+        long tokens = 0;
+
+        for (var changed : paths) {
+            var path = changed.toAbsolutePath().normalize();
+            if (!Files.isRegularFile(path)) {
+                removed += remove(path);
+                continue;
+            }
+            checked++;
+            try {
+                var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                long size = attributes.size();
+                long lastModified = attributes.lastModifiedTime().toMillis();
+                var cached = files.get(path);
+                if (cached != null && cached.size() == size && cached.lastModified() == lastModified) {
+                    continue;
+                }
+
+                byte[] bytes = Files.readAllBytes(path);
+                var hash = Hashing.murmur3_128().hashBytes(bytes);
+                if (cached != null && cached.hash().equals(hash)) {
+                    files.put(path, new FileState(size, lastModified, hash, cached.tokens()));
+                    continue;
+                }
+
+                var result = lexicalAnalyzer.parse(new String(bytes, StandardCharsets.UTF_8), path, bytes.length);
+                files.put(path, new FileState(size, lastModified, hash, result));
+                lexed++;
+                tokens += result.size();
+            } catch (IOException | RuntimeException e) {
+                // 读取失败或词法错误：丢弃旧结果，等待下一次修改
+                files.remove(path);
+                failed++;
+                System.err.println(path + ": " + e.getMessage());
+            }
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new Summary(checked, lexed, removed, failed, tokens, millis);
+    }
+
+    private int remove(Path path) {
+        if (files.remove(path) != null) {
+            return 1;
+        }
+        // 整个目录被删除时，移除目录下的所有文件
+        var children = files.keySet().stream().filter(file -> file.startsWith(path)).toList();
+        children.forEach(files::remove);
+        return children.size();
+    }
+
+    public Optional<List<Token>> tokens(Path path) {
+        return Optional.ofNullable(files.get(path.toAbsolutePath().normalize())).map(FileState::tokens);
+    }
+
+    /**
+     * @return 当前缓存了结果的所有文件
+     */
+    public Set<Path> paths() {
+        return Set.copyOf(files.keySet());
+    }
+
+    public int fileCount() {
+        return files.size();
+    }
+}
@@ -4,11 +4,15 @@ import com.google.common.base.Charsets;
 import com.google.common.base.Strings;
 import com.google.common.io.Files;
 import com.tt.compiler.Token;
+import com.tt.compiler.event.LexErrorEvent;
+import com.tt.compiler.event.LexFileEvent;
+import com.tt.compiler.event.LexPhaseEvent;
 import com.tt.compiler.exception.IllegalSymbolException;
 import com.tt.compiler.exception.UnclosedCommentException;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -39,7 +43,7 @@ public class LexicalAnalyzer {
      * @date 2/22/2023
      */
     public List<Token> parse(File sourceFile) throws IOException {
-        return parse(Files.asCharSource(sourceFile, Charsets.UTF_8).read());
+        return parse(Files.asCharSource(sourceFile, Charsets.UTF_8).read(), sourceFile.toPath(), sourceFile.length());
     }
 
     /**
@@ -51,9 +55,75 @@ public class LexicalAnalyzer {
      * @date 2/22/2023
      */
     public List<Token> parse(String source) {
-        var lines = simplifySource(source);
-        lines = filterComments(lines);
-        return lines.stream().flatMap(this::parseOneExpression).collect(Collectors.toList());
+        return lex(source, null);
+    }
+
+    /**
+     * 对已经读入内存的源文件进行词法分析，并产生该文件的 JFR 事件
+     *
+     * @param source 源代码字符串
+     * @param path   源代码所在文件
+     * @param bytes  源文件的字节数
+     * @return Token 列表
+     * @author agent
+     * @date 10/19/2026
+     */
+    public List<Token> parse(String source, Path path, long bytes) {
+        var event = new LexFileEvent();
+        event.begin();
+        var tokens = lex(source, path.toString());
+        if (event.shouldCommit()) {
+            event.path = path.toString();
+            event.bytes = bytes;
+            event.tokens = tokens.size();
+            event.commit();
+        }
+        return tokens;
+    }
+
+    /**
+     * 词法分析，每个阶段都会产生一个 JFR 事件，JFR 未开启时事件不会提交
+     *
+     * @param source 源代码字符串
+     * @param path   源代码所在文件，仅用于 JFR 事件，可以为 null
+     * @return Token 列表
+     */
+    private List<Token> lex(String source, String path) {
+        try {
+            var event = new LexPhaseEvent();
+            event.begin();
+            var lines = simplifySource(source);
+            commitPhase(event, LexPhaseEvent.SimplifySource, path, lines.size());
+
+            event = new LexPhaseEvent();
+            event.begin();
+            lines = filterComments(lines);
+            commitPhase(event, LexPhaseEvent.FilterComments, path, lines.size());
+
+            event = new LexPhaseEvent();
+            event.begin();
+            var tokens = lines.stream().flatMap(this::parseOneExpression).collect(Collectors.toList());
+            commitPhase(event, LexPhaseEvent.Tokenize, path, tokens.size());
+            return tokens;
+        } catch (RuntimeException e) {
+            var event = new LexErrorEvent();
+            if (event.shouldCommit()) {
+                event.path = path;
+                event.exception = e.getClass();
+                event.message = e.getMessage();
+                event.commit();
+            }
+            throw e;
+        }
+    }
+
+    private static void commitPhase(LexPhaseEvent event, String phase, String path, int size) {
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.path = path;
+            event.size = size;
+            event.commit();
+        }
     }
 
     public Stream<Token> parseOneExpression(String expression) {
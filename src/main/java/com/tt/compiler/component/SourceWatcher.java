@@ -0,0 +1,132 @@
+package com.tt.compiler.component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * 通过 WatchService 监听源码目录，把变化的文件交给 {@link IncrementalLexer}
+ * <p>
+ * 每次调用 {@link #poll} 处理一轮事件：等到第一个事件后继续收集，直到 debounceMillis 内没有新事件
+ *
+ * @author agent
+ * @date 10/19/2026 12:52 PM
+ */
+public class SourceWatcher implements Closeable {
+    public static final String SourceSuffix = ".java";
+
+    private final Path root;
+    private final IncrementalLexer lexer;
+    private final WatchService service;
+    private final long debounceMillis;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    public SourceWatcher(Path root, IncrementalLexer lexer, WatchService service, long debounceMillis) {
+        this.root = root;
+        this.lexer = lexer;
+        this.service = service;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * 注册整棵目录树并分析其中所有源文件
+     *
+     * @return 本轮统计
+     * @throws IOException IOException
+     */
+    public IncrementalLexer.Summary start() throws IOException {
+        var sources = new LinkedHashSet<Path>();
+        register(root, sources);
+        return lexer.refresh(sources);
+    }
+
+    /**
+     * 处理一轮事件
+     *
+     * @param timeout 等待第一个事件的最长时间
+     * @param unit    timeout 的单位
+     * @return 本轮统计，超时或者没有源文件变化时为空
+     * @throws IOException          IOException
+     * @throws InterruptedException 等待时被中断
+     */
+    public Optional<IncrementalLexer.Summary> poll(long timeout, TimeUnit unit)
+            throws IOException, InterruptedException {
+        var key = service.poll(timeout, unit);
+        if (key == null) {
+            return Optional.empty();
+        }
+        var changed = new LinkedHashSet<Path>();
+        // 编辑器保存时往往连续触发多个事件，等到一段时间内没有新事件再处理
+        do {
+            if (collect(key, changed)) {
+                // 事件溢出：重新扫描整棵目录树，并检查已缓存的文件是否被删除
+                register(root, changed);
+                changed.addAll(lexer.paths());
+            }
+        } while ((key = service.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null);
+
+        return changed.isEmpty() ? Optional.empty() : Optional.of(lexer.refresh(changed));
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+
+    /**
+     * 处理一个 WatchKey 上的事件
+     *
+     * @return 事件是否溢出，溢出时需要重新扫描整棵目录树
+     */
+    private boolean collect(WatchKey key, Set<Path> changed) throws IOException {
+        var directory = directories.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || directory == null) {
+                overflow = true;
+                continue;
+            }
+            var path = directory.resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                register(path, changed);
+            } else if (event.kind() == ENTRY_DELETE || path.toString().endsWith(SourceSuffix)) {
+                changed.add(path);
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+        return overflow;
+    }
+
+    /**
+     * 注册 start 下的所有目录，并把其中的源文件加入 sources
+     */
+    private void register(Path start, Set<Path> sources) throws IOException {
+        try (Stream<Path> paths = Files.walk(start)) {
+            for (var path : (Iterable<Path>) paths::iterator) {
+                if (Files.isDirectory(path)) {
+                    directories.put(path.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), path);
+                } else if (path.toString().endsWith(SourceSuffix)) {
+                    sources.add(path);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.tt.compiler.constants;
+
+/**
+ * 后端用到的 JVM 指令与常量池标记
+ *
+ * @author agent
+ * @date 10/19/2026 12:41 PM
+ */
+public final class Opcodes {
+    // 常量池标记
+    public static final int CONSTANT_Utf8 = 1;
+    public static final int CONSTANT_Integer = 3;
+    public static final int CONSTANT_Class = 7;
+    public static final int CONSTANT_String = 8;
+    public static final int CONSTANT_Fieldref = 9;
+    public static final int CONSTANT_Methodref = 10;
+    public static final int CONSTANT_NameAndType = 12;
+
+    // 访问标志
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_STATIC = 0x0008;
+    public static final int ACC_SUPER = 0x0020;
+
+    // 常量
+    public static final int ICONST_M1 = 0x02;
+    public static final int ICONST_0 = 0x03;
+    public static final int BIPUSH = 0x10;
+    public static final int SIPUSH = 0x11;
+    public static final int LDC = 0x12;
+    public static final int LDC_W = 0x13;
+
+    // 局部变量
+    public static final int ILOAD = 0x15;
+    public static final int ISTORE = 0x36;
+    public static final int IINC = 0x84;
+
+    // 操作数栈
+    public static final int POP = 0x57;
+    public static final int DUP = 0x59;
+    public static final int SWAP = 0x5f;
+
+    // 算术
+    public static final int IADD = 0x60;
+    public static final int ISUB = 0x64;
+    public static final int IMUL = 0x68;
+    public static final int IDIV = 0x6c;
+    public static final int IREM = 0x70;
+    public static final int INEG = 0x74;
+
+    // 跳转
+    public static final int IFEQ = 0x99;
+    public static final int IFNE = 0x9a;
+    public static final int IF_ICMPEQ = 0x9f;
+    public static final int IF_ICMPNE = 0xa0;
+    public static final int IF_ICMPLT = 0xa1;
+    public static final int IF_ICMPGE = 0xa2;
+    public static final int IF_ICMPGT = 0xa3;
+    public static final int IF_ICMPLE = 0xa4;
+    public static final int GOTO = 0xa7;
+
+    // 返回
+    public static final int IRETURN = 0xac;
+    public static final int RETURN = 0xb1;
+
+    // 字段与方法
+    public static final int GETSTATIC = 0xb2;
+    public static final int INVOKEVIRTUAL = 0xb6;
+    public static final int INVOKESPECIAL = 0xb7;
+    public static final int INVOKESTATIC = 0xb8;
+    public static final int NEW = 0xbb;
+    public static final int ATHROW = 0xbf;
+
+    private Opcodes() {
+    }
+}
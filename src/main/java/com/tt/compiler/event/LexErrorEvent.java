@@ -0,0 +1,28 @@
+package com.tt.compiler.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 词法分析失败，例如 UnclosedCommentException
+ *
+ * @author agent
+ * @date 10/19/2026 12:43 PM
+ */
+@Name("com.tt.compiler.LexError")
+@Label("Lex Error")
+@Category({"Compiler", "Lexer"})
+@Description("Lexical analysis failed with an exception")
+public class LexErrorEvent extends Event {
+    @Label("Path")
+    public String path;
+
+    @Label("Exception")
+    public Class<?> exception;
+
+    @Label("Message")
+    public String message;
+}
@@ -0,0 +1,30 @@
+package com.tt.compiler.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 对一个源文件进行词法分析
+ *
+ * @author agent
+ * @date 10/19/2026 12:43 PM
+ */
+@Name("com.tt.compiler.LexFile")
+@Label("Lex File")
+@Category({"Compiler", "Lexer"})
+@Description("Lexical analysis of one source file")
+public class LexFileEvent extends Event {
+    @Label("Path")
+    public String path;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Tokens")
+    public int tokens;
+}
@@ -0,0 +1,33 @@
+package com.tt.compiler.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 词法分析中的一个阶段：simplifySource、filterComments 或 tokenize
+ *
+ * @author agent
+ * @date 10/19/2026 12:43 PM
+ */
+@Name("com.tt.compiler.LexPhase")
+@Label("Lex Phase")
+@Category({"Compiler", "Lexer"})
+@Description("One phase of lexical analysis")
+public class LexPhaseEvent extends Event {
+    public static final String SimplifySource = "simplifySource";
+    public static final String FilterComments = "filterComments";
+    public static final String Tokenize = "tokenize";
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Output Size")
+    @Description("Number of lines or tokens produced by the phase")
+    public int size;
+}
@@ -0,0 +1,15 @@
+package com.tt.compiler.exception;
+
+/**
+ * @author agent
+ * @date 10/19/2026 12:41 PM
+ */
+public class IllegalSyntaxException extends RuntimeException {
+    public IllegalSyntaxException() {
+        super("illegal syntax");
+    }
+
+    public IllegalSyntaxException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,470 @@
+package com.tt.compiler.index;
+
+import com.google.common.primitives.ImmutableLongArray;
+import com.tt.compiler.component.LexicalAnalyzer;
+import com.tt.compiler.constants.SpecifyCode;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 标识符倒排索引：标识符 -> (文件, Token 下标)
+ * <p>
+ * 建立索引时多线程并行进行词法分析，每个线程写自己的分片，最后合并。索引文件的布局为
+ * <pre>
+ *     头部: Magic、Version、文件数、失败文件数、标识符数、目录/标识符/倒排表三段的起始位置
+ *     文件表: 每个文件为 int 长度 + UTF-8 相对路径，下标即文件 id
+ *     失败文件表: 无法读取或分析的文件 id（升序），这些文件没有倒排表，查询结果可能不完整
+ *     目录: 按标识符 UTF-8 字节序排列的定长项 {标识符位置, 标识符长度, 倒排表位置, 出现次数}
+ *     标识符: 所有标识符的 UTF-8 内容
+ *     倒排表: 按 (文件 id, Token 下标) 排序，两者都做差分后以变长整数保存，换文件时下标从 0 重新差分
+ * </pre>
+ * 查询时通过内存映射读取文件，在目录中二分查找，只解码命中的倒排表。映射在 {@link IdentifierIndex}
+ * 被 GC 回收时才会解除，在 Windows 上映射期间无法替换索引文件，因此 {@link #update} 把旧索引整个读入堆中，不做映射
+ *
+ * @author agent
+ * @date 10/19/2026 12:46 PM
+ */
+public class IdentifierIndex {
+    public static final int Magic = 0x54544958;
+    public static final int Version = 2;
+    public static final String SourceSuffix = ".java";
+    private static final int HeaderSize = 5 * Integer.BYTES + 3 * Long.BYTES;
+    private static final int EntrySize = 3 * Integer.BYTES + Long.BYTES;
+
+    private final ByteBuffer buffer;
+    private final List<String> files;
+    private final List<Path> paths;
+    private final List<String> failedFiles;
+    private final int termCount;
+    private final int directoryStart;
+    private final int termsStart;
+    private final int postingsStart;
+
+    /**
+     * 标识符的一次出现
+     *
+     * @param file       相对于源码根目录的路径
+     * @param tokenIndex 该标识符在文件 Token 列表中的下标
+     */
+    public record Occurrence(Path file, int tokenIndex) {
+    }
+
+    private IdentifierIndex(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != Magic || buffer.getInt(4) != Version) {
+            throw new IllegalStateException("not an identifier index file");
+        }
+        int fileCount = buffer.getInt(8);
+        int failedCount = buffer.getInt(12);
+        termCount = buffer.getInt(16);
+        directoryStart = (int) buffer.getLong(20);
+        termsStart = (int) buffer.getLong(28);
+        postingsStart = (int) buffer.getLong(36);
+
+        files = new ArrayList<>(fileCount);
+        paths = new ArrayList<>(fileCount);
+        int position = HeaderSize;
+        for (int i = 0; i < fileCount; i++) {
+            int length = buffer.getInt(position);
+            var file = readString(position + Integer.BYTES, length);
+            files.add(file);
+            paths.add(Path.of(file));
+            position += Integer.BYTES + length;
+        }
+        failedFiles = new ArrayList<>(failedCount);
+        for (int i = 0; i < failedCount; i++) {
+            failedFiles.add(files.get(buffer.getInt(position + i * Integer.BYTES)));
+        }
+    }
+
+    /**
+     * 以内存映射的方式打开索引文件
+     *
+     * @param indexFile 索引文件
+     * @return 索引
+     * @throws IOException IOException
+     * @author agent
+     * @date 10/19/2026
+     */
+    public static IdentifierIndex open(Path indexFile) throws IOException {
+        try (var channel = FileChannel.open(indexFile)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("index file too large: " + indexFile);
+            }
+            return new IdentifierIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 把索引文件整个读入堆中，不保留映射，用于之后要替换该文件的场合
+     */
+    private static IdentifierIndex load(Path indexFile) throws IOException {
+        return new IdentifierIndex(ByteBuffer.wrap(Files.readAllBytes(indexFile)));
+    }
+
+    /**
+     * 对 root 下所有源文件并行建立索引并写入 indexFile
+     *
+     * @param root        源码根目录
+     * @param indexFile   索引文件
+     * @param parallelism 线程数
+     * @throws IOException IOException，无法分析的源文件不会导致失败，而是记录在 {@link #failedFiles()} 中
+     * @author agent
+     * @date 10/19/2026
+     */
+    public static void build(Path root, Path indexFile, int parallelism) throws IOException {
+        List<String> files;
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths.filter(path -> path.toString().endsWith(SourceSuffix) && Files.isRegularFile(path))
+                    .map(path -> relativize(root, path))
+                    .sorted()
+                    .toList();
+        }
+        var postings = new HashMap<String, ImmutableLongArray.Builder>();
+        var ids = new int[files.size()];
+        Arrays.setAll(ids, i -> i);
+        var failed = lex(root, files, ids, parallelism, postings);
+        write(indexFile, files, failed, postings);
+    }
+
+    /**
+     * 增量更新：只重新分析 changed 中的文件（包括新增和删除的），其余文件的倒排表直接从旧索引中复制
+     * <p>
+     * 本方法不会映射旧索引，但其他地方通过 {@link #open} 打开的索引在被回收前仍然映射着该文件，
+     * 在 Windows 上会导致替换失败
+     *
+     * @param root        源码根目录
+     * @param indexFile   已存在的索引文件，会被原子替换
+     * @param changed     发生变化的文件
+     * @param parallelism 线程数
+     * @throws IOException IOException，无法分析的源文件不会导致失败，而是记录在 {@link #failedFiles()} 中
+     * @author agent
+     * @date 10/19/2026
+     */
+    public static void update(Path root, Path indexFile, Collection<Path> changed, int parallelism) throws IOException {
+        var changedFiles = new HashSet<String>();
+        for (var path : changed) {
+            changedFiles.add(relativize(root, path.isAbsolute() ? path : root.resolve(path)));
+        }
+
+        var postings = new HashMap<String, ImmutableLongArray.Builder>();
+        var newIds = new HashMap<String, Integer>();
+        var old = load(indexFile);
+        var fileSet = new TreeSet<>(old.files);
+        fileSet.removeAll(changedFiles);
+        for (var file : changedFiles) {
+            if (file.endsWith(SourceSuffix) && Files.isRegularFile(root.resolve(file))) {
+                fileSet.add(file);
+            }
+        }
+        var files = List.copyOf(fileSet);
+        for (int i = 0; i < files.size(); i++) {
+            newIds.put(files.get(i), i);
+        }
+
+        // 旧文件 id -> 新文件 id，发生变化的文件映射为 -1
+        var remap = new int[old.files.size()];
+        for (int i = 0; i < remap.length; i++) {
+            var file = old.files.get(i);
+            remap[i] = changedFiles.contains(file) ? -1 : newIds.get(file);
+        }
+        // 没有变化的文件仍然无法分析
+        var failed = new TreeSet<Integer>();
+        for (var file : old.failedFiles) {
+            if (!changedFiles.contains(file)) {
+                failed.add(newIds.get(file));
+            }
+        }
+        for (int entry = 0; entry < old.termCount; entry++) {
+            var term = old.term(entry);
+            for (long posting : old.postings(entry)) {
+                int fileId = remap[(int) (posting >>> 32)];
+                if (fileId >= 0) {
+                    postings.computeIfAbsent(term, key -> ImmutableLongArray.builder())
+                            .add(((long) fileId << 32) | (posting & 0xFFFFFFFFL));
+                }
+            }
+        }
+
+        var relex = files.stream().filter(changedFiles::contains).toList();
+        var ids = relex.stream().mapToInt(newIds::get).toArray();
+        failed.addAll(lex(root, relex, ids, parallelism, postings));
+        write(indexFile, files, failed, postings);
+    }
+
+    /**
+     * 查找标识符的所有出现位置
+     *
+     * @param identifier 标识符
+     * @return 按文件、下标排序的出现位置，没有时为空列表。{@link #failedFiles()} 中的文件不在结果中
+     */
+    public List<Occurrence> find(String identifier) {
+        int entry = search(identifier.getBytes(StandardCharsets.UTF_8));
+        if (entry < 0) {
+            return List.of();
+        }
+        var out = new ArrayList<Occurrence>();
+        for (long posting : postings(entry)) {
+            out.add(new Occurrence(paths.get((int) (posting >>> 32)), (int) posting));
+        }
+        return out;
+    }
+
+    public List<String> files() {
+        return files;
+    }
+
+    /**
+     * @return 建立索引时无法读取或分析的文件，不为空时查询结果不完整
+     */
+    public List<String> failedFiles() {
+        return failedFiles;
+    }
+
+    public int termCount() {
+        return termCount;
+    }
+
+    // ---------------------------------------------------------------- 读取
+
+    private int search(byte[] key) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareTerm(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compareTerm(int entry, byte[] key) {
+        int position = directoryStart + entry * EntrySize;
+        int start = termsStart + buffer.getInt(position);
+        int length = buffer.getInt(position + Integer.BYTES);
+        for (int i = 0; i < Math.min(length, key.length); i++) {
+            int cmp = (buffer.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+
+    private String term(int entry) {
+        int position = directoryStart + entry * EntrySize;
+        return readString(termsStart + buffer.getInt(position), buffer.getInt(position + Integer.BYTES));
+    }
+
+    private long[] postings(int entry) {
+        int position = directoryStart + entry * EntrySize;
+        int cursor = postingsStart + (int) buffer.getLong(position + 2 * Integer.BYTES);
+        var out = new long[buffer.getInt(position + 2 * Integer.BYTES + Long.BYTES)];
+        int fileId = 0;
+        int tokenIndex = 0;
+        for (int i = 0; i < out.length; i++) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(cursor++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            if (value != 0) {
+                fileId += value;
+                tokenIndex = 0;
+            }
+
+            value = 0;
+            shift = 0;
+            do {
+                b = buffer.get(cursor++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            tokenIndex += value;
+            out[i] = ((long) fileId << 32) | tokenIndex;
+        }
+        return out;
+    }
+
+    private String readString(int position, int length) {
+        var bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ---------------------------------------------------------------- 建立
+
+    /**
+     * 多线程分析 files，每个线程把结果写入自己的分片，最后合并到 postings 中
+     *
+     * @return 无法读取或分析的文件 id
+     */
+    private static Set<Integer> lex(Path root, List<String> files, int[] ids, int parallelism,
+                                    Map<String, ImmutableLongArray.Builder> postings) throws IOException {
+        var failed = ConcurrentHashMap.<Integer>newKeySet();
+        if (files.isEmpty()) {
+            return failed;
+        }
+        var next = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, files.size())));
+        try {
+            var shards = new ArrayList<Future<Map<String, ImmutableLongArray.Builder>>>();
+            for (int t = 0; t < Math.max(1, Math.min(parallelism, files.size())); t++) {
+                shards.add(executor.submit(() -> {
+                    var lexicalAnalyzer = new LexicalAnalyzer();
+                    var shard = new HashMap<String, ImmutableLongArray.Builder>();
+                    int i;
+                    while ((i = next.getAndIncrement()) < files.size()) {
+                        var file = root.resolve(files.get(i));
+                        try {
+                            var tokens = lexicalAnalyzer.parse(file.toFile());
+                            for (int index = 0; index < tokens.size(); index++) {
+                                var token = tokens.get(index);
+                                if (token.specifyCode() == SpecifyCode.Identifier) {
+                                    shard.computeIfAbsent(token.value(), key -> ImmutableLongArray.builder())
+                                            .add(((long) ids[i] << 32) | index);
+                                }
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            // 不能把无法分析的文件当作没有标识符，记录下来让查询方知道结果不完整
+                            failed.add(ids[i]);
+                        }
+                    }
+                    return shard;
+                }));
+            }
+            for (var shard : shards) {
+                shard.get().forEach((term, builder) ->
+                        postings.computeIfAbsent(term, key -> ImmutableLongArray.builder()).addAll(builder.build()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while building index", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return failed;
+    }
+
+    private static void write(Path indexFile, List<String> files, Set<Integer> failed,
+                              Map<String, ImmutableLongArray.Builder> postings) throws IOException {
+        var terms = postings.keySet().stream()
+                .map(term -> term.getBytes(StandardCharsets.UTF_8))
+                .sorted(Arrays::compareUnsigned)
+                .toList();
+
+        var fileTable = new ByteArrayOutputStream();
+        var fileTableOut = new DataOutputStream(fileTable);
+        for (var file : files) {
+            byte[] bytes = file.getBytes(StandardCharsets.UTF_8);
+            fileTableOut.writeInt(bytes.length);
+            fileTableOut.write(bytes);
+        }
+
+        var directory = new ByteArrayOutputStream();
+        var directoryOut = new DataOutputStream(directory);
+        var termBytes = new ByteArrayOutputStream();
+        var postingBytes = new ByteArrayOutputStream();
+        for (var term : terms) {
+            long[] sorted = postings.get(new String(term, StandardCharsets.UTF_8)).build().toArray();
+            Arrays.sort(sorted);
+            directoryOut.writeInt(termBytes.size());
+            directoryOut.writeInt(term.length);
+            directoryOut.writeLong(postingBytes.size());
+            directoryOut.writeInt(sorted.length);
+            termBytes.write(term);
+
+            int fileId = 0;
+            int tokenIndex = 0;
+            for (long posting : sorted) {
+                int currentFile = (int) (posting >>> 32);
+                if (currentFile != fileId) {
+                    tokenIndex = 0;
+                }
+                writeVarInt(postingBytes, currentFile - fileId);
+                writeVarInt(postingBytes, (int) posting - tokenIndex);
+                fileId = currentFile;
+                tokenIndex = (int) posting;
+            }
+        }
+
+        long directoryStart = HeaderSize + fileTable.size() + (long) failed.size() * Integer.BYTES;
+        long termsStart = directoryStart + directory.size();
+        long postingsStart = termsStart + termBytes.size();
+
+        // 先写临时文件再替换，避免读到写了一半的索引
+        var parent = indexFile.toAbsolutePath().getParent();
+        var temp = Files.createTempFile(parent, indexFile.getFileName().toString(), ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(Magic);
+            out.writeInt(Version);
+            out.writeInt(files.size());
+            out.writeInt(failed.size());
+            out.writeInt(terms.size());
+            out.writeLong(directoryStart);
+            out.writeLong(termsStart);
+            out.writeLong(postingsStart);
+            fileTable.writeTo(out);
+            for (int id : new TreeSet<>(failed)) {
+                out.writeInt(id);
+            }
+            directory.writeTo(out);
+            termBytes.writeTo(out);
+            postingBytes.writeTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static String relativize(Path root, Path path) {
+        return root.toAbsolutePath().normalize()
+                .relativize(path.toAbsolutePath().normalize())
+                .toString()
+                .replace('\\', '/');
+    }
+}
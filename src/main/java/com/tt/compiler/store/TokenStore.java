@@ -0,0 +1,402 @@
+package com.tt.compiler.store;
+
+import com.tt.compiler.Token;
+import com.tt.compiler.constants.SpecifyCode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 堆外的 Token 存储，用于同时保存整个仓库的 Token 而不在堆上保留大量 Token 对象
+ * <p>
+ * Token 被编码后写入固定大小的块中：直接内存用量不超过 memoryBudget 时使用 direct ByteBuffer，
+ * 超出后改用映射到临时文件的 MappedByteBuffer。每个文件在块中的布局为
+ * <pre>
+ *     [偏移表: count 个 int][Token 数据]
+ * </pre>
+ * 关键字和符号只占一个字节，读取时直接返回 {@link Token} 中的常量；标识符和字面量为
+ * 0xFF、SpecifyCode 序号、变长长度和 UTF-8 内容
+ * <p>
+ * 同一个文件重复写入或者被移除后，旧数据仍然计入 memoryBudget，直到所在的块被回收
+ *
+ * @author agent
+ * @date 10/19/2026 12:44 PM
+ */
+public class TokenStore implements Closeable {
+    public static final int DefaultChunkSize = 4 << 20;
+    private static final int Escape = 0xFF;
+    private static final Token[] WellKnown;
+    private static final Map<Token, Integer> WellKnownIds = new HashMap<>();
+    private static final SpecifyCode[] Codes = SpecifyCode.values();
+
+    static {
+        // Token 中声明的所有常量（关键字和符号）
+        WellKnown = Arrays.stream(Token.class.getFields())
+                .filter(field -> field.getType() == Token.class && Modifier.isStatic(field.getModifiers()))
+                .map(TokenStore::readConstant)
+                .toArray(Token[]::new);
+        if (WellKnown.length >= Escape) {
+            throw new IllegalStateException("too many token constants: " + WellKnown.length);
+        }
+        for (int i = 0; i < WellKnown.length; i++) {
+            WellKnownIds.put(WellKnown[i], i);
+        }
+    }
+
+    private final long memoryBudget;
+    private final int chunkSize;
+    private final Path spillDirectory;
+    private final Map<Path, Segment> files = new ConcurrentHashMap<>();
+    private final Set<Chunk> chunks = new HashSet<>();
+    private Chunk chunk;
+    private long directBytes;
+    private long mappedBytes;
+
+    /**
+     * 一个块，记录其中仍然有效的字节数以及存放在其中的文件
+     */
+    private static class Chunk {
+        final ByteBuffer buffer;
+        final boolean mapped;
+        final Set<Path> files = new HashSet<>();
+        int live;
+
+        Chunk(ByteBuffer buffer, boolean mapped) {
+            this.buffer = buffer;
+            this.mapped = mapped;
+        }
+    }
+
+    /**
+     * 一个文件在块中的位置，length 为偏移表和 Token 数据的总长度
+     */
+    private record Segment(Chunk chunk, int start, int count, int length) {
+        ByteBuffer buffer() {
+            return chunk.buffer;
+        }
+
+        int dataStart() {
+            return start + count * Integer.BYTES;
+        }
+    }
+
+    /**
+     * @param memoryBudget 直接内存上限（字节），超出后写入内存映射的临时文件
+     */
+    public TokenStore(long memoryBudget) {
+        this(memoryBudget, DefaultChunkSize, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * @param memoryBudget   直接内存上限（字节），超出后写入内存映射的临时文件
+     * @param chunkSize      每个块的大小，单个文件的数据超过该大小时会独占一个块
+     * @param spillDirectory 临时文件所在的目录
+     */
+    public TokenStore(long memoryBudget, int chunkSize, Path spillDirectory) {
+        this.memoryBudget = memoryBudget;
+        this.chunkSize = chunkSize;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * 保存一个文件的 Token，已经保存过的文件会被替换
+     *
+     * @param file   文件
+     * @param tokens 词法分析结果
+     * @author agent
+     * @date 10/19/2026
+     */
+    public synchronized void put(Path file, List<Token> tokens) {
+        var data = new Encoder();
+        var offsets = new int[tokens.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = data.size;
+            data.write(tokens.get(i));
+        }
+
+        var bytes = new byte[offsets.length * Integer.BYTES + data.size];
+        var wrapped = ByteBuffer.wrap(bytes);
+        for (int offset : offsets) {
+            wrapped.putInt(offset);
+        }
+        wrapped.put(data.bytes, 0, data.size);
+
+        place(file, offsets.length, bytes);
+    }
+
+    /**
+     * 移除一个文件的 Token
+     *
+     * @param file 文件
+     * @return 文件是否存在
+     */
+    public synchronized boolean remove(Path file) {
+        var old = files.remove(file);
+        if (old == null) {
+            return false;
+        }
+        release(file, old);
+        reclaim(old.chunk());
+        return true;
+    }
+
+    /**
+     * 随机读取一个 Token
+     *
+     * @param file  文件
+     * @param index Token 下标
+     * @return Token，关键字和符号返回的是共享常量
+     */
+    public Token get(Path file, int index) {
+        var segment = segment(file);
+        return decode(segment, Objects.checkIndex(index, segment.count()));
+    }
+
+    /**
+     * 读取 Token 的类别，不会创建 Token 对象
+     */
+    public SpecifyCode specifyCode(Path file, int index) {
+        var segment = segment(file);
+        var buffer = segment.buffer();
+        int position = segment.dataStart()
+                + buffer.getInt(segment.start() + Objects.checkIndex(index, segment.count()) * Integer.BYTES);
+        int id = buffer.get(position) & 0xFF;
+        return id == Escape ? Codes[buffer.get(position + 1)] : WellKnown[id].specifyCode();
+    }
+
+    public int size(Path file) {
+        return segment(file).count();
+    }
+
+    public Stream<Token> stream(Path file) {
+        var segment = segment(file);
+        return IntStream.range(0, segment.count()).mapToObj(i -> decode(segment, i));
+    }
+
+    public boolean contains(Path file) {
+        return files.containsKey(file);
+    }
+
+    public Set<Path> files() {
+        return Set.copyOf(files.keySet());
+    }
+
+    /**
+     * @return 当前持有的直接内存块的总大小，包括其中已经失效的数据
+     */
+    public synchronized long directBytes() {
+        return directBytes;
+    }
+
+    /**
+     * @return 当前持有的内存映射块的总大小，包括其中已经失效的数据
+     */
+    public synchronized long mappedBytes() {
+        return mappedBytes;
+    }
+
+    /**
+     * @return 被替换或移除、但所在的块还没有被回收的字节数
+     */
+    public synchronized long deadBytes() {
+        long dead = 0;
+        for (var held : chunks) {
+            dead += held.buffer.position() - held.live;
+        }
+        return dead;
+    }
+
+    /**
+     * 丢弃所有数据。块在不再被引用后由 GC 释放，临时文件随之由操作系统删除，因此关闭后不能再读取
+     */
+    @Override
+    public synchronized void close() {
+        files.clear();
+        chunks.clear();
+        chunk = null;
+        directBytes = 0;
+        mappedBytes = 0;
+    }
+
+    private Segment segment(Path file) {
+        var segment = files.get(file);
+        if (segment == null) {
+            throw new NoSuchElementException("no tokens stored for " + file);
+        }
+        return segment;
+    }
+
+    /**
+     * 把编码好的数据写入当前块，空间不够时换一个新块。新数据写入并替换旧位置之后才释放旧数据、回收旧块，
+     * 这样回收时搬过来的文件不会占用已经检查过的空间，分配失败时也不会改动原有数据
+     */
+    private void place(Path file, int count, byte[] bytes) {
+        Chunk previous = null;
+        if (chunk == null || chunk.buffer.remaining() < bytes.length) {
+            var allocated = allocate(Math.max(chunkSize, bytes.length));
+            previous = chunk;
+            chunk = allocated;
+        }
+        int start = chunk.buffer.position();
+        chunk.buffer.put(bytes);
+        chunk.live += bytes.length;
+        var old = files.put(file, new Segment(chunk, start, count, bytes.length));
+        if (old != null) {
+            release(file, old);
+        }
+        chunk.files.add(file);
+
+        if (old != null) {
+            reclaim(old.chunk());
+        }
+        if (previous != null) {
+            reclaim(previous);
+        }
+    }
+
+    private void release(Path file, Segment segment) {
+        segment.chunk().live -= segment.length();
+        segment.chunk().files.remove(file);
+    }
+
+    /**
+     * 回收失效数据过多的块：全部失效的块直接丢弃，失效数据不少于一半时把剩余的文件搬到当前块后丢弃。
+     * 正在读取旧块的调用方仍然持有它的引用，所以不会读到被释放的内存
+     */
+    private void reclaim(Chunk target) {
+        int used = target.buffer.position();
+        if (target == chunk || !chunks.contains(target) || (target.live > 0 && target.live * 2L > used)) {
+            return;
+        }
+        // 先把块摘下，搬运过程中再次换块触发的回收不会重复处理它
+        chunks.remove(target);
+        if (target.mapped) {
+            mappedBytes -= target.buffer.capacity();
+        } else {
+            directBytes -= target.buffer.capacity();
+        }
+        for (var file : List.copyOf(target.files)) {
+            var segment = files.get(file);
+            var bytes = new byte[segment.length()];
+            target.buffer.get(segment.start(), bytes);
+            place(file, segment.count(), bytes);
+        }
+    }
+
+    private Chunk allocate(int size) {
+        Chunk allocated;
+        if (directBytes + size <= memoryBudget) {
+            directBytes += size;
+            allocated = new Chunk(ByteBuffer.allocateDirect(size), false);
+        } else {
+            allocated = new Chunk(map(size), true);
+            mappedBytes += size;
+        }
+        chunks.add(allocated);
+        return allocated;
+    }
+
+    /**
+     * 映射一个临时文件。DELETE_ON_CLOSE 在 Unix 上会立即删除目录项，在 Windows 上则在映射被释放后删除，
+     * 因此不需要在映射仍然存在时手动删除文件
+     */
+    private ByteBuffer map(int size) {
+        try {
+            var spillFile = Files.createTempFile(spillDirectory, "tokens", ".bin");
+            try (var channel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Token decode(Segment segment, int index) {
+        var buffer = segment.buffer();
+        int position = segment.dataStart() + buffer.getInt(segment.start() + index * Integer.BYTES);
+        int id = buffer.get(position++) & 0xFF;
+        if (id != Escape) {
+            return WellKnown[id];
+        }
+        var code = Codes[buffer.get(position++)];
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position++);
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        var bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new Token(code, new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static Token readConstant(Field field) {
+        try {
+            return (Token) field.get(null);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 可增长的字节缓冲区，用于在写入块之前计算编码后的长度
+     */
+    private static class Encoder {
+        byte[] bytes = new byte[256];
+        int size;
+
+        void write(Token token) {
+            var id = WellKnownIds.get(token);
+            if (id != null) {
+                writeByte(id);
+                return;
+            }
+            byte[] value = token.value().getBytes(StandardCharsets.UTF_8);
+            writeByte(Escape);
+            writeByte(token.specifyCode().ordinal());
+            int length = value.length;
+            while (length >= 0x80) {
+                writeByte((length & 0x7F) | 0x80);
+                length >>>= 7;
+            }
+            writeByte(length);
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.tt.compiler.backend;
+
+import com.tt.compiler.component.LexicalAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * @author agent
+ * @date 10/19/2026 12:41 PM
+ */
+public class TestBytecodeBackend {
+    LexicalAnalyzer lexicalAnalyzer = new LexicalAnalyzer();
+    BytecodeBackend backend = new BytecodeBackend();
+
+    private String run(String source) throws ReflectiveOperationException {
+        var out = new ByteArrayOutputStream();
+        var original = System.out;
+        System.setOut(new PrintStream(out, true));
+        try {
+            backend.run(lexicalAnalyzer.parse(source));
+        } finally {
+            System.setOut(original);
+        }
+        return out.toString().replace("\r\n", "\n");
+    }
+
+    @Test
+    void testRunLoop() throws ReflectiveOperationException {
+        var input = """
+                package com.tt.compiler;
+
+                /**
+                 * example
+                 */
+                public class Main {
+                    public static void main(String[] args) {
+                        int a = 1;
+                        a += 2;
+                        int sum = 0;
+                        for (int i = 0; i < 10; i++) {
+                            sum += i;
+                        }
+                        System.out.println(sum);
+                        System.out.println("a = " + a);
+                    }
+                }
+                """;
+
+        assertThat(run(input), equalTo("45\na = 3\n"));
+    }
+
+    @Test
+    void testRunMethodCall() throws ReflectiveOperationException {
+        var input = """
+                public class Fib {
+                    static int fib(int n) {
+                        if (n < 2) {
+                            return n;
+                        }
+                        return fib(n - 1) + fib(n - 2);
+                    }
+
+                    public static void main(String[] args) {
+                        int i = 0;
+                        while (true) {
+                            if (i == 5) {
+                                break;
+                            }
+                            System.out.print(fib(i * 2) + " ");
+                            i++;
+                        }
+                        System.out.println();
+                    }
+                }
+                """;
+
+        assertThat(run(input), equalTo("0 1 3 8 21 \n"));
+    }
+
+    @Test
+    void testEmitClassFile() throws Exception {
+        var input = """
+                package com.tt.example;
+
+                public class Hello {
+                    public static void main(String[] args) {
+                        System.out.println("Hello World");
+                    }
+                }
+                """;
+        Path dir = Files.createTempDirectory("emit");
+
+        Path classFile = backend.emit(lexicalAnalyzer.parse(input), dir);
+
+        assertThat(classFile, equalTo(dir.resolve("com/tt/example/Hello.class")));
+        byte[] bytes = Files.readAllBytes(classFile);
+        assertThat(bytes[0] & 0xff, equalTo(0xCA));
+        assertThat(bytes[1] & 0xff, equalTo(0xFE));
+    }
+}
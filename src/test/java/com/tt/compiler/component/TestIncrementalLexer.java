@@ -0,0 +1,68 @@
+package com.tt.compiler.component;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * @author agent
+ * @date 10/19/2026 12:42 PM
+ */
+public class TestIncrementalLexer {
+    IncrementalLexer lexer = new IncrementalLexer(new LexicalAnalyzer());
+
+    @Test
+    void testRefreshOnlyChangedFiles() throws IOException {
+        Path dir = Files.createTempDirectory("watch");
+        Path a = Files.writeString(dir.resolve("A.java"), "int a = 1;");
+        Path b = Files.writeString(dir.resolve("B.java"), "int b = 2;");
+
+        var first = lexer.refresh(List.of(a, b));
+        assertThat(first.checked(), equalTo(2));
+        assertThat(first.lexed(), equalTo(2));
+        assertThat(first.tokens(), equalTo(10L));
+
+        // 大小和修改时间都没变
+        assertThat(lexer.refresh(List.of(a, b)).lexed(), equalTo(0));
+
+        // 修改时间变了但内容没变
+        Files.setLastModifiedTime(a, FileTime.fromMillis(Files.getLastModifiedTime(a).toMillis() + 10_000));
+        assertThat(lexer.refresh(List.of(a)).lexed(), equalTo(0));
+
+        // 内容变了
+        Files.writeString(b, "int b = 2; b += 3;");
+        var changed = lexer.refresh(List.of(a, b));
+        assertThat(changed.lexed(), equalTo(1));
+        assertThat(lexer.tokens(b).orElseThrow().size(), equalTo(9));
+
+        Files.delete(a);
+        assertThat(lexer.refresh(List.of(a)).removed(), equalTo(1));
+        assertThat(lexer.fileCount(), equalTo(1));
+    }
+
+    @Test
+    void testRefreshDeletedDirectory() throws IOException {
+        Path dir = Files.createTempDirectory("watch");
+        Path sub = Files.createDirectories(dir.resolve("sub"));
+        Path a = Files.writeString(sub.resolve("A.java"), "int a = 1;");
+        Path b = Files.writeString(sub.resolve("B.java"), "int b = 2;");
+        lexer.refresh(List.of(a, b));
+
+        Files.delete(a);
+        Files.delete(b);
+        Files.delete(sub);
+
+        // 只收到目录被删除的通知，目录本身不算作检查过的文件
+        var summary = lexer.refresh(List.of(sub));
+        assertThat(summary.removed(), equalTo(2));
+        assertThat(summary.checked(), equalTo(0));
+        assertThat(lexer.fileCount(), equalTo(0));
+    }
+}
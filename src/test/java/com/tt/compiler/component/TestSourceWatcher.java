@@ -0,0 +1,61 @@
+package com.tt.compiler.component;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author agent
+ * @date 10/19/2026 12:52 PM
+ */
+public class TestSourceWatcher {
+    IncrementalLexer lexer = new IncrementalLexer(new LexicalAnalyzer());
+
+    /**
+     * 一直处理事件，直到条件成立或者超时
+     */
+    private static void pollUntil(SourceWatcher watcher, BooleanSupplier condition)
+            throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            watcher.poll(1, TimeUnit.SECONDS);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    void testNewDirectoryAndDeletedDirectory() throws IOException, InterruptedException {
+        Path root = Files.createTempDirectory("watch");
+        Path a = Files.writeString(root.resolve("A.java"), "int a = 1;");
+
+        try (var watcher = new SourceWatcher(root, lexer, root.getFileSystem().newWatchService(), 50)) {
+            assertThat(watcher.start().lexed(), equalTo(1));
+
+            // 新建的目录需要被注册，其中的文件需要被分析
+            Path sub = Files.createDirectories(root.resolve("sub/inner"));
+            Path b = Files.writeString(sub.resolve("B.java"), "int b = 2;");
+            Files.writeString(a, "int a = 1; a += 1;");
+            pollUntil(watcher, () -> lexer.tokens(b).isPresent() && lexer.tokens(a).orElseThrow().size() == 9);
+
+            // 之后在新目录中的修改也能收到
+            Files.writeString(b, "int b = 3; b += 2;");
+            pollUntil(watcher, () -> lexer.tokens(b).orElseThrow().size() == 9);
+
+            // 删除整个目录时移除其中所有文件的缓存
+            Files.delete(b);
+            Files.delete(sub);
+            Files.delete(root.resolve("sub"));
+            pollUntil(watcher, () -> lexer.tokens(b).isEmpty());
+            assertThat(lexer.paths(), equalTo(Set.of(a.toAbsolutePath().normalize())));
+        }
+    }
+}
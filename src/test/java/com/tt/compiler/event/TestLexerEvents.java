@@ -0,0 +1,92 @@
+package com.tt.compiler.event;
+
+import com.tt.compiler.component.IncrementalLexer;
+import com.tt.compiler.component.LexicalAnalyzer;
+import com.tt.compiler.exception.UnclosedCommentException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author agent
+ * @date 10/19/2026 12:43 PM
+ */
+public class TestLexerEvents {
+    LexicalAnalyzer lexicalAnalyzer = new LexicalAnalyzer();
+
+    @Test
+    void testRecordLexerEvents() throws IOException {
+        Path source = Files.writeString(Files.createTempFile("Lex", ".java"), "int a = 1;\na += 2;\n");
+        Path dump = Files.createTempFile("lexer", ".jfr");
+
+        try (var recording = new Recording()) {
+            recording.enable(LexFileEvent.class);
+            recording.enable(LexPhaseEvent.class);
+            recording.enable(LexErrorEvent.class);
+            recording.start();
+            lexicalAnalyzer.parse(source.toFile());
+            assertThrows(UnclosedCommentException.class, () -> lexicalAnalyzer.parse("int a;\n*/\n"));
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        var files = events.stream().filter(e -> e.getEventType().getName().equals("com.tt.compiler.LexFile")).toList();
+        assertThat(files.size(), equalTo(1));
+        assertThat(files.get(0).getString("path"), equalTo(source.toString()));
+        assertThat(files.get(0).getLong("bytes"), equalTo(Files.size(source)));
+        assertThat(files.get(0).getInt("tokens"), equalTo(9));
+
+        var phases = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.tt.compiler.LexPhase"))
+                .filter(e -> source.toString().equals(e.getString("path")))
+                .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                .map(e -> e.getString("phase"))
+                .toList();
+        assertThat(phases, contains(LexPhaseEvent.SimplifySource, LexPhaseEvent.FilterComments, LexPhaseEvent.Tokenize));
+
+        var errors = events.stream().filter(e -> e.getEventType().getName().equals("com.tt.compiler.LexError")).toList();
+        assertThat(errors.size(), equalTo(1));
+        assertThat(errors.get(0).getClass("exception").getName(), equalTo(UnclosedCommentException.class.getName()));
+    }
+
+    @Test
+    void testRecordIncrementalLexerEvents() throws IOException {
+        Path dir = Files.createTempDirectory("watch");
+        Path good = Files.writeString(dir.resolve("Good.java"), "int a = 1;");
+        Path bad = Files.writeString(dir.resolve("Bad.java"), "int a;\n*/\n");
+        Path dump = Files.createTempFile("lexer", ".jfr");
+
+        try (var recording = new Recording()) {
+            recording.enable(LexFileEvent.class);
+            recording.enable(LexErrorEvent.class);
+            recording.start();
+            new IncrementalLexer(lexicalAnalyzer).refresh(List.of(good, bad));
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        var files = events.stream().filter(e -> e.getEventType().getName().equals("com.tt.compiler.LexFile")).toList();
+        assertThat(files.size(), equalTo(1));
+        assertThat(files.get(0).getString("path"), equalTo(good.toAbsolutePath().normalize().toString()));
+        assertThat(files.get(0).getLong("bytes"), equalTo(Files.size(good)));
+        assertThat(files.get(0).getInt("tokens"), equalTo(5));
+
+        var errors = events.stream().filter(e -> e.getEventType().getName().equals("com.tt.compiler.LexError")).toList();
+        assertThat(errors.size(), equalTo(1));
+        assertThat(errors.get(0).getString("path"), equalTo(bad.toAbsolutePath().normalize().toString()));
+    }
+}
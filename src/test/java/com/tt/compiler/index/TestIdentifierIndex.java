@@ -0,0 +1,77 @@
+package com.tt.compiler.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * @author agent
+ * @date 10/19/2026 12:46 PM
+ */
+public class TestIdentifierIndex {
+    @Test
+    void testBuildFindAndUpdate() throws IOException {
+        Path root = Files.createTempDirectory("index");
+        Files.createDirectories(root.resolve("a"));
+        Path first = Files.writeString(root.resolve("a/First.java"), "int sum = 0; sum += count;");
+        Path second = Files.writeString(root.resolve("Second.java"), "int count = 1;");
+        Path indexFile = root.resolve("identifiers.idx");
+
+        IdentifierIndex.build(root, indexFile, 4);
+        var index = IdentifierIndex.open(indexFile);
+        assertThat(index.files(), equalTo(List.of("Second.java", "a/First.java")));
+        assertThat(index.termCount(), equalTo(2));
+        assertThat(index.find("sum"), contains(
+                new IdentifierIndex.Occurrence(Path.of("a/First.java"), 1),
+                new IdentifierIndex.Occurrence(Path.of("a/First.java"), 5)));
+        assertThat(index.find("count"), contains(
+                new IdentifierIndex.Occurrence(Path.of("Second.java"), 1),
+                new IdentifierIndex.Occurrence(Path.of("a/First.java"), 7)));
+        assertThat(index.find("missing"), empty());
+
+        Files.writeString(first, "int total = count;");
+        Files.delete(second);
+        Files.writeString(root.resolve("Third.java"), "int sum;");
+        IdentifierIndex.update(root, indexFile, List.of(first, second, Path.of("Third.java")), 2);
+        var updated = IdentifierIndex.open(indexFile);
+        assertThat(updated.files(), equalTo(List.of("Third.java", "a/First.java")));
+        assertThat(updated.find("sum"), contains(new IdentifierIndex.Occurrence(Path.of("Third.java"), 1)));
+        assertThat(updated.find("count"), contains(new IdentifierIndex.Occurrence(Path.of("a/First.java"), 3)));
+        assertThat(updated.find("total"), contains(new IdentifierIndex.Occurrence(Path.of("a/First.java"), 1)));
+    }
+
+    @Test
+    void testRecordFailedFiles() throws IOException {
+        Path root = Files.createTempDirectory("index");
+        Path good = Files.writeString(root.resolve("Good.java"), "int a;");
+        Path bad = Files.writeString(root.resolve("Bad.java"), "int a;\n*/\n");
+        Path indexFile = root.resolve("identifiers.idx");
+
+        // 无法分析的文件不会中断建立索引，而是被记录下来
+        IdentifierIndex.build(root, indexFile, 2);
+        var index = IdentifierIndex.open(indexFile);
+        assertThat(index.files(), equalTo(List.of("Bad.java", "Good.java")));
+        assertThat(index.failedFiles(), equalTo(List.of("Bad.java")));
+        assertThat(index.find("a"), contains(new IdentifierIndex.Occurrence(Path.of("Good.java"), 1)));
+
+        // 没有变化的失败文件在增量更新后仍然被记录
+        Files.writeString(good, "int b;");
+        IdentifierIndex.update(root, indexFile, List.of(good), 2);
+        assertThat(IdentifierIndex.open(indexFile).failedFiles(), equalTo(List.of("Bad.java")));
+
+        Files.writeString(bad, "int a;");
+        IdentifierIndex.update(root, indexFile, List.of(bad), 2);
+        var fixed = IdentifierIndex.open(indexFile);
+        assertThat(fixed.failedFiles(), empty());
+        assertThat(fixed.find("a"), contains(new IdentifierIndex.Occurrence(Path.of("Bad.java"), 1)));
+        assertThat(fixed.find("b"), contains(new IdentifierIndex.Occurrence(Path.of("Good.java"), 1)));
+    }
+}
@@ -0,0 +1,104 @@
+package com.tt.compiler.store;
+
+import com.tt.compiler.Token;
+import com.tt.compiler.component.LexicalAnalyzer;
+import com.tt.compiler.constants.SpecifyCode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author agent
+ * @date 10/19/2026 12:44 PM
+ */
+public class TestTokenStore {
+    LexicalAnalyzer lexicalAnalyzer = new LexicalAnalyzer();
+
+    @Test
+    void testRoundTripAndSpill() throws IOException {
+        var first = lexicalAnalyzer.parse("""
+                public class Main {
+                    public static void main(String[] args) {
+                        System.out.println("你好, World");
+                    }
+                }
+                """);
+        var second = lexicalAnalyzer.parse("int a = 1; a += 2;");
+        Path spillDirectory = Files.createTempDirectory("spill");
+
+        // 第一个块放在直接内存中，之后超出预算，写入临时文件
+        try (var store = new TokenStore(64, 64, spillDirectory)) {
+            store.put(Path.of("Second.java"), second);
+            store.put(Path.of("First.java"), first);
+
+            assertThat(store.directBytes(), equalTo(64L));
+            assertThat(store.mappedBytes(), greaterThan(0L));
+            assertThat(store.stream(Path.of("First.java")).toList(), equalTo(first));
+            assertThat(store.stream(Path.of("Second.java")).toList(), equalTo(second));
+            assertThat(store.get(Path.of("Second.java"), 4), sameInstance(Token.Semicolon));
+            assertThat(store.specifyCode(Path.of("Second.java"), 1), equalTo(SpecifyCode.Identifier));
+            assertThat(store.size(Path.of("First.java")), equalTo(first.size()));
+        }
+
+        try (var files = Files.list(spillDirectory)) {
+            assertThat(files.count(), equalTo(0L));
+        }
+    }
+
+    @Test
+    void testReplaceAndRemoveReclaimChunks() throws IOException {
+        var tokens = lexicalAnalyzer.parse("int a = 1; a += 2;");
+
+        try (var store = new TokenStore(1024, 64, Files.createTempDirectory("spill"))) {
+            store.put(Path.of("A.java"), tokens);
+            store.put(Path.of("B.java"), tokens);
+            assertThat(store.directBytes(), equalTo(128L));
+
+            // 整个块都失效后被丢弃
+            assertThat(store.remove(Path.of("A.java")), equalTo(true));
+            assertThat(store.directBytes(), equalTo(64L));
+            assertThat(store.deadBytes(), equalTo(0L));
+
+            // 替换时旧数据在当前块中，先计入失效字节，换块后被回收
+            store.put(Path.of("B.java"), tokens);
+            assertThat(store.directBytes(), equalTo(64L));
+            assertThat(store.deadBytes(), equalTo(0L));
+            assertThat(store.stream(Path.of("B.java")).toList(), equalTo(tokens));
+            assertThat(store.contains(Path.of("A.java")), equalTo(false));
+            assertThat(store.remove(Path.of("A.java")), equalTo(false));
+        }
+    }
+
+    @Test
+    void testCompactWhileAllocatingChunk() throws IOException {
+        var small = lexicalAnalyzer.parse("a1 a2 a3 a4 a5");
+        var large = lexicalAnalyzer.parse("b1 b2 b3 b4 b5 b6 b7 b8 b9 b10 b11 b12 b13 b14 b15 b16 b17 b18 b19 b20");
+
+        try (var store = new TokenStore(1 << 20, 200, Files.createTempDirectory("spill"))) {
+            store.put(Path.of("A.java"), small);
+            store.put(Path.of("B.java"), small);
+            store.put(Path.of("C.java"), small);
+            store.remove(Path.of("A.java"));
+            store.remove(Path.of("B.java"));
+            assertThat(store.deadBytes(), greaterThan(0L));
+
+            // D.java 放不下，换块后旧块失效过半，C.java 被搬走，不能挤占 D.java 已经检查过的空间
+            store.put(Path.of("D.java"), large);
+
+            assertThat(store.deadBytes(), equalTo(0L));
+            assertThat(store.files(), equalTo(Set.of(Path.of("C.java"), Path.of("D.java"))));
+            assertThat(store.stream(Path.of("C.java")).toList(), equalTo(small));
+            assertThat(store.stream(Path.of("D.java")).toList(), equalTo(large));
+            assertThat(store.get(Path.of("C.java"), 4), equalTo(small.get(4)));
+            assertThat(store.specifyCode(Path.of("D.java"), 19), equalTo(SpecifyCode.Identifier));
+        }
+    }
+}